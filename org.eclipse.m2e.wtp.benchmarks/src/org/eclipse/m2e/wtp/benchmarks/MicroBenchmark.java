@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.m2e.wtp.benchmarks;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Minimal JMH-like harness running in the OSGi test runtime : each operation is warmed up, then measured over several
+ * timed iterations. Throughput (ops/s) and allocation per call (B/op, on JVMs exposing per-thread allocation counters)
+ * are printed and appended to the CSV file named by the <code>benchmark.results</code> system property, so results can
+ * be tracked across builds.
+ */
+public abstract class MicroBenchmark {
+
+  /** Benchmarked operation. Implementations must return a value derived from their work, to prevent dead code elimination */
+  public interface Operation {
+    Object run() throws Exception;
+  }
+
+  private static final int WARMUP_ITERATIONS = Integer.getInteger("benchmark.warmupIterations", 5);
+
+  private static final int MEASUREMENT_ITERATIONS = Integer.getInteger("benchmark.iterations", 5);
+
+  private static final long ITERATION_TIME_MS = Long.getLong("benchmark.iterationTime", 1000);
+
+  /** Accumulates operation results, so the JIT can't discard them */
+  private static volatile int blackhole;
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  private static final Method ALLOCATED_BYTES = getAllocatedBytesMethod();
+
+  /**
+   * Measures the throughput and allocation rate of an operation.
+   */
+  protected void measure(String name, Operation operation) throws Exception {
+    for(int i = 0; i < WARMUP_ITERATIONS; i++ ) {
+      iteration(operation);
+    }
+    double totalOps = 0;
+    long totalNanos = 0;
+    long totalBytes = 0;
+    for(int i = 0; i < MEASUREMENT_ITERATIONS; i++ ) {
+      long bytesBefore = allocatedBytes();
+      long start = System.nanoTime();
+      long ops = iteration(operation);
+      totalNanos += System.nanoTime() - start;
+      totalBytes += allocatedBytes() - bytesBefore;
+      totalOps += ops;
+    }
+    double opsPerSecond = totalOps * 1000000000d / totalNanos;
+    long bytesPerOp = ALLOCATED_BYTES == null ? -1 : Math.round(totalBytes / totalOps);
+    String benchmark = getClass().getSimpleName() + "." + name;
+    System.out.println(String.format(Locale.ENGLISH, "%-60s %15.1f ops/s %12d B/op", benchmark, opsPerSecond,
+        bytesPerOp));
+    record(benchmark, opsPerSecond, bytesPerOp);
+  }
+
+  private static long iteration(Operation operation) throws Exception {
+    long ops = 0;
+    int sink = 0;
+    long end = System.nanoTime() + ITERATION_TIME_MS * 1000000;
+    do {
+      Object result = operation.run();
+      sink += result == null ? 0 : result.hashCode();
+      ops++ ;
+    } while(System.nanoTime() < end);
+    blackhole += sink;
+    return ops;
+  }
+
+  private static void record(String benchmark, double opsPerSecond, long bytesPerOp) throws IOException {
+    String results = System.getProperty("benchmark.results");
+    if(results == null) {
+      return;
+    }
+    File file = new File(results);
+    boolean header = !file.exists();
+    if(file.getParentFile() != null) {
+      file.getParentFile().mkdirs();
+    }
+    Writer writer = new FileWriter(file, true);
+    try {
+      if(header) {
+        writer.write("date,benchmark,ops/s,B/op\n");
+      }
+      String date = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss").format(new Date());
+      writer.write(String.format(Locale.ENGLISH, "%s,%s,%.1f,%d%n", date, benchmark, opsPerSecond, bytesPerOp));
+    } finally {
+      writer.close();
+    }
+  }
+
+  private static long allocatedBytes() throws Exception {
+    if(ALLOCATED_BYTES == null) {
+      return 0;
+    }
+    return (Long) ALLOCATED_BYTES.invoke(THREADS, Thread.currentThread().getId());
+  }
+
+  /**
+   * com.sun.management.ThreadMXBean is HotSpot specific, so it's looked up reflectively.
+   */
+  private static Method getAllocatedBytesMethod() {
+    try {
+      Class<?> sunThreadMXBean = Class.forName("com.sun.management.ThreadMXBean");
+      if(sunThreadMXBean.isInstance(THREADS)) {
+        Method method = sunThreadMXBean.getMethod("getThreadAllocatedBytes", long.class);
+        method.invoke(THREADS, Thread.currentThread().getId());
+        return method;
+      }
+    } catch(Exception e) {
+      System.err.println("Per-thread allocation counters not available, B/op won't be measured");
+    }
+    return null;
+  }
+}
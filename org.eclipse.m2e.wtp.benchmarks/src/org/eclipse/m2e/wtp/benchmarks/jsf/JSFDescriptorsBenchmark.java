@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.m2e.wtp.benchmarks.jsf;
+
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
+
+import org.eclipse.m2e.wtp.benchmarks.MicroBenchmark;
+import org.eclipse.m2e.wtp.jsf.internal.utils.FacesConfigQuickPeek;
+import org.eclipse.m2e.wtp.jsf.internal.utils.JSFUtils;
+import org.junit.Test;
+
+/**
+ * Measures the descriptor sniffing done on every JSF project configuration, on inputs shaped like the ones from
+ * FacesConfigQuickPeekTest and JSFUtilsTest : small descriptors, multi-MB descriptors and pathological ones where the
+ * answer is only known once the whole file was read : a faces-config.xml without any version hint (no version, no
+ * schema location, no namespace, no DOCTYPE) and a web.xml without any FacesServlet.
+ */
+public class JSFDescriptorsBenchmark extends MicroBenchmark {
+
+  private static final String FACES_CONFIG_22 = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\r\n"
+      + "<faces-config xmlns=\"http://xmlns.jcp.org/xml/ns/javaee\"\r\n"
+      + "    xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\r\n"
+      + "    xsi:schemaLocation=\"http://xmlns.jcp.org/xml/ns/javaee\r\n"
+      + "        http://xmlns.jcp.org/xml/ns/javaee/web-facesconfig_2_2.xsd\"\r\n"
+      + "    version=\"2.2\">\r\n"
+      + "</faces-config>";
+
+  private static final String FACES_CONFIG_DTD_11 = "<!DOCTYPE faces-config PUBLIC \"-//Sun Microsystems, Inc.//DTD JavaServer Faces Config 1.1//EN\" \"http://java.sun.com/dtd/web-facesconfig_1_1.dtd\"><faces-config></faces-config>";
+
+  private static final String WEB_XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\r\n"
+      + "<web-app xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xmlns=\"http://java.sun.com/xml/ns/javaee\" xmlns:web=\"http://java.sun.com/xml/ns/javaee/web-app_2_5.xsd\" xsi:schemaLocation=\"http://java.sun.com/xml/ns/javaee http://java.sun.com/xml/ns/javaee/web-app_2_5.xsd\" version=\"2.5\">\r\n";
+
+  private static final String FACES_SERVLET = "  <servlet>\r\n"
+      + "  <servlet-name>FacesServlet</servlet-name>\r\n"
+      + "  <servlet-class>javax.faces.webapp.FacesServlet</servlet-class>\r\n"
+      + "  </servlet>\r\n";
+
+  /** Number of managed beans, servlets... in large descriptors, each weighing ~200 bytes, i.e. ~4MB */
+  private static final int LARGE = 20000;
+
+  private static final byte[] SMALL_FACES_CONFIG = bytes(FACES_CONFIG_22);
+
+  private static final byte[] SMALL_FACES_CONFIG_DTD = bytes(FACES_CONFIG_DTD_11);
+
+  private static final String FACES_CONFIG_20_ATTRIBUTES = " xmlns=\"http://java.sun.com/xml/ns/javaee\""
+      + " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+      + " xsi:schemaLocation=\"http://java.sun.com/xml/ns/javaee http://java.sun.com/xml/ns/javaee/web-facesconfig_2_0.xsd\""
+      + " version=\"2.0\"";
+
+  private static final byte[] LARGE_FACES_CONFIG = bytes(largeFacesConfig(FACES_CONFIG_20_ATTRIBUTES));
+
+  private static final byte[] PATHOLOGICAL_FACES_CONFIG = bytes(largeFacesConfig(""));
+
+  private static final byte[] SMALL_WEB_XML = bytes(WEB_XML_HEADER + FACES_SERVLET + "</web-app>");
+
+  private static final byte[] LARGE_WEB_XML = bytes(WEB_XML_HEADER + servlets(LARGE) + FACES_SERVLET + "</web-app>");
+
+  private static final byte[] PATHOLOGICAL_WEB_XML = bytes(WEB_XML_HEADER + servlets(LARGE) + "</web-app>");
+
+  @Test
+  public void getVersion_small() throws Exception {
+    measure("getVersion_small", getVersion(SMALL_FACES_CONFIG));
+  }
+
+  @Test
+  public void getVersion_smallDTD() throws Exception {
+    measure("getVersion_smallDTD", getVersion(SMALL_FACES_CONFIG_DTD));
+  }
+
+  @Test
+  public void getVersion_large() throws Exception {
+    measure("getVersion_large", getVersion(LARGE_FACES_CONFIG));
+  }
+
+  @Test
+  public void getVersion_pathological() throws Exception {
+    measure("getVersion_pathological", getVersion(PATHOLOGICAL_FACES_CONFIG));
+  }
+
+  @Test
+  public void hasFacesServlet_small() throws Exception {
+    measure("hasFacesServlet_small", hasFacesServlet(SMALL_WEB_XML));
+  }
+
+  @Test
+  public void hasFacesServlet_large() throws Exception {
+    measure("hasFacesServlet_large", hasFacesServlet(LARGE_WEB_XML));
+  }
+
+  @Test
+  public void hasFacesServlet_pathological() throws Exception {
+    measure("hasFacesServlet_pathological", hasFacesServlet(PATHOLOGICAL_WEB_XML));
+  }
+
+  private static Operation getVersion(final byte[] facesConfig) {
+    return new Operation() {
+      public Object run() {
+        return new FacesConfigQuickPeek(new ByteArrayInputStream(facesConfig)).getVersion();
+      }
+    };
+  }
+
+  private static Operation hasFacesServlet(final byte[] webXml) {
+    return new Operation() {
+      public Object run() {
+        return Boolean.valueOf(JSFUtils.hasFacesServlet(new ByteArrayInputStream(webXml)));
+      }
+    };
+  }
+
+  /**
+   * @param rootAttributes attributes of the faces-config element. When empty, nothing in the file hints at its version
+   */
+  private static String largeFacesConfig(String rootAttributes) {
+    StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\r\n");
+    sb.append("<faces-config").append(rootAttributes).append(">\r\n");
+    for(int i = 0; i < LARGE; i++ ) {
+      sb.append("  <managed-bean>\r\n")
+        .append("    <managed-bean-name>bean").append(i).append("</managed-bean-name>\r\n")
+        .append("    <managed-bean-class>org.example.beans.Bean").append(i).append("</managed-bean-class>\r\n")
+        .append("    <managed-bean-scope>request</managed-bean-scope>\r\n")
+        .append("  </managed-bean>\r\n");
+    }
+    return sb.append("</faces-config>").toString();
+  }
+
+  private static String servlets(int count) {
+    StringBuilder sb = new StringBuilder();
+    for(int i = 0; i < count; i++ ) {
+      sb.append("  <servlet>\r\n")
+        .append("  <servlet-name>Servlet").append(i).append("</servlet-name>\r\n")
+        .append("  <servlet-class>org.example.servlets.Servlet").append(i).append("</servlet-class>\r\n")
+        .append("  </servlet>\r\n");
+    }
+    return sb.toString();
+  }
+
+  private static byte[] bytes(String s) {
+    try {
+      return s.getBytes("UTF-8");
+    } catch(UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -55,4 +55,8 @@ public class AbstractIntegrationTest {
   protected IProject[] importProjects(String ... projectNames) throws Exception {
     return WorkspaceUtil.importProjects(projectsDir, workspace, projectNames);
   }
+
+  protected IProject[] importProjectsInParallel(String ... projectNames) throws Exception {
+    return WorkspaceUtil.importProjectsInParallel(projectsDir, workspace, projectNames);
+  }
 }
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.m2e.wtp.common.tests;
+
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.IJobManager;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+
+/**
+ * Tracks the archive overlay unpacking jobs scheduled by the m2e-wtp overlay module core, so callers can block exactly
+ * as long as it takes for the overlays to be unzipped.
+ * <p>
+ * Unpacking jobs are recognized by their class name, which keeps this bundle independent from the overlay internals.
+ * </p>
+ */
+public class OverlayUnpackTracker extends JobChangeAdapter {
+
+  static final String UNPACK_JOB_CLASS_NAME = "UnpackArchiveJob";
+
+  private final Set<Job> pending = new HashSet<Job>();
+
+  private final Map<Job, Long> startTimes = new HashMap<Job, Long>();
+
+  private final Map<Job, Long> unpackTimes = new LinkedHashMap<Job, Long>();
+
+  private boolean tracking;
+
+  /**
+   * Starts tracking unpacking jobs. Jobs already scheduled or running are tracked as well.
+   */
+  public void start() {
+    IJobManager jobManager = Job.getJobManager();
+    jobManager.addJobChangeListener(this);
+    synchronized(this) {
+      tracking = true;
+      for(Job job : jobManager.find(null)) {
+        if(isUnpackJob(job) && job.getState() != Job.NONE) {
+          pending.add(job);
+          if(job.getState() == Job.RUNNING) {
+            startTimes.put(job, System.currentTimeMillis());
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Stops tracking new unpacking jobs and waits for the ones already tracked to complete.
+   *
+   * @param timeout maximum time to wait, in milliseconds
+   * @throws AssertionError if some unpacking jobs are still pending after <code>timeout</code> milliseconds.
+   */
+  public void awaitCompletion(long timeout) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + timeout;
+    try {
+      synchronized(this) {
+        tracking = false;
+        while(!pending.isEmpty()) {
+          long remaining = deadline - System.currentTimeMillis();
+          if(remaining <= 0) {
+            fail("Overlay unpacking still running after " + timeout + " ms : " + pending);
+          }
+          wait(remaining);
+        }
+      }
+    } finally {
+      stop();
+    }
+  }
+
+  /**
+   * Stops listening to job changes, without waiting for the tracked jobs. Safe to call several times.
+   */
+  public void stop() {
+    synchronized(this) {
+      tracking = false;
+    }
+    Job.getJobManager().removeJobChangeListener(this);
+  }
+
+  /**
+   * @return the unpacking time, in milliseconds, of each completed unpacking job. Jobs are keyed by identity, as
+   *         overlays of archives with the same file name get jobs with the same name.
+   */
+  public synchronized Map<Job, Long> getUnpackTimes() {
+    return Collections.unmodifiableMap(new LinkedHashMap<Job, Long>(unpackTimes));
+  }
+
+  public void scheduled(IJobChangeEvent event) {
+    Job job = event.getJob();
+    if(isUnpackJob(job)) {
+      synchronized(this) {
+        if(tracking) {
+          pending.add(job);
+        }
+      }
+    }
+  }
+
+  public void running(IJobChangeEvent event) {
+    Job job = event.getJob();
+    if(isUnpackJob(job)) {
+      synchronized(this) {
+        startTimes.put(job, System.currentTimeMillis());
+      }
+    }
+  }
+
+  public void done(IJobChangeEvent event) {
+    Job job = event.getJob();
+    if(isUnpackJob(job)) {
+      synchronized(this) {
+        Long start = startTimes.remove(job);
+        if(start != null) {
+          unpackTimes.put(job, System.currentTimeMillis() - start);
+        }
+        pending.remove(job);
+        notifyAll();
+      }
+    }
+  }
+
+  private static boolean isUnpackJob(Job job) {
+    return UNPACK_JOB_CLASS_NAME.equals(job.getClass().getSimpleName());
+  }
+}
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.m2e.wtp.common.tests;
+
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * Counters and timers collected by {@link TestServerUtil#getServerModuleResources(org.eclipse.core.resources.IProject)}
+ * : number and duration of archive overlay unpackings, number of calls during which some overlays were, or weren't,
+ * unpacked, members() walk latency and number of module resources produced. Only unpackings happening during these
+ * calls are counted : overlays unpacked by a build or a project update before the call aren't.
+ * <p>
+ * Tests can read a {@link #snapshot()} to assert budgets. Setting
+ * <code>-Dm2e.wtp.tests.metricsLogInterval=&lt;seconds&gt;</code> periodically logs the metrics to stdout.
+ * </p>
+ */
+public class ServerModuleMetrics {
+
+  private static final AtomicLong UNPACK_COUNT = new AtomicLong();
+
+  private static final AtomicLong UNPACK_TIME = new AtomicLong();
+
+  private static final AtomicLong CALLS_WITHOUT_UNPACK = new AtomicLong();
+
+  private static final AtomicLong CALLS_WITH_UNPACK = new AtomicLong();
+
+  private static final AtomicLong WALK_COUNT = new AtomicLong();
+
+  private static final AtomicLong WALK_TIME = new AtomicLong();
+
+  private static final AtomicLong MODULE_RESOURCES = new AtomicLong();
+
+  static {
+    long interval = Long.getLong("m2e.wtp.tests.metricsLogInterval", 0);
+    if (interval > 0) {
+      new Timer("Server module metrics", true).scheduleAtFixedRate(new TimerTask() {
+        public void run() {
+          System.out.println(snapshot());
+        }
+      }, interval * 1000, interval * 1000);
+    }
+  }
+
+  public final long unpackCount;
+
+  public final long unpackTime;
+
+  public final long callsWithoutUnpack;
+
+  public final long callsWithUnpack;
+
+  public final long walkCount;
+
+  public final long walkTime;
+
+  public final long moduleResources;
+
+  private ServerModuleMetrics() {
+    unpackCount = UNPACK_COUNT.get();
+    unpackTime = UNPACK_TIME.get();
+    callsWithoutUnpack = CALLS_WITHOUT_UNPACK.get();
+    callsWithUnpack = CALLS_WITH_UNPACK.get();
+    walkCount = WALK_COUNT.get();
+    walkTime = WALK_TIME.get();
+    moduleResources = MODULE_RESOURCES.get();
+  }
+
+  /**
+   * @return the current value of all the metrics.
+   */
+  public static ServerModuleMetrics snapshot() {
+    return new ServerModuleMetrics();
+  }
+
+  public static void reset() {
+    UNPACK_COUNT.set(0);
+    UNPACK_TIME.set(0);
+    CALLS_WITHOUT_UNPACK.set(0);
+    CALLS_WITH_UNPACK.set(0);
+    WALK_COUNT.set(0);
+    WALK_TIME.set(0);
+    MODULE_RESOURCES.set(0);
+  }
+
+  static void recordUnpacking(Map<Job, Long> unpackTimes) {
+    if (unpackTimes.isEmpty()) {
+      CALLS_WITHOUT_UNPACK.incrementAndGet();
+      return;
+    }
+    CALLS_WITH_UNPACK.incrementAndGet();
+    for (Long time : unpackTimes.values()) {
+      UNPACK_COUNT.incrementAndGet();
+      UNPACK_TIME.addAndGet(time);
+    }
+  }
+
+  static void recordWalk(long time, int resources) {
+    WALK_COUNT.incrementAndGet();
+    WALK_TIME.addAndGet(time);
+    MODULE_RESOURCES.addAndGet(resources);
+  }
+
+  public String toString() {
+    return "Server module metrics : unpacked " + unpackCount + " archives in " + unpackTime + " ms, "
+        + callsWithUnpack + " calls with unpacking / " + callsWithoutUnpack + " without, " + walkCount
+        + " members() walks in " + walkTime + " ms producing " + moduleResources + " module resources";
+  }
+}
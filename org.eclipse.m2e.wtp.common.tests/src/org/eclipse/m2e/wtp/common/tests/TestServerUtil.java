@@ -30,7 +30,18 @@ import org.eclipse.wst.server.core.model.ModuleDelegate;
 
 public class TestServerUtil {
   
+  /** Maximum time to wait for archive overlays to be unpacked, in milliseconds */
+  private static final long UNPACK_TIMEOUT = 2 * 60 * 1000;
+
   public static IModuleResource[] getServerModuleResources(IProject project) throws Exception {
+    return getServerModuleResources(project, new OverlayUnpackTracker());
+  }
+
+  /**
+   * Returns all the server module resources of a project. Blocks until the archive overlays unpacked by the first
+   * members() call are available. The unpacking time of each overlay can then be read from <code>unpackTracker</code>.
+   */
+  public static IModuleResource[] getServerModuleResources(IProject project, OverlayUnpackTracker unpackTracker) throws Exception {
     IModule module  = ServerUtil.getModule(project);
     if (module == null) {
       throw  new IllegalArgumentException(project.getName() + " is not a Server IModule");
@@ -40,15 +51,23 @@ public class TestServerUtil {
       throw new NullPointerException("can not find ModuleDelegate for [" + module.getModuleType().getId() + ", " + module.getClass()+ "]");
     }
     //1st call to members() will trigger unzipping of archive overlays
-    d.members();
-    Thread.sleep(1000);
+    unpackTracker.start();
+    try {
+      d.members();
+      unpackTracker.awaitCompletion(UNPACK_TIMEOUT);
+    } finally {
+      unpackTracker.stop();
+    }
+    ServerModuleMetrics.recordUnpacking(unpackTracker.getUnpackTimes());
     //Should get the complete members now
+    long start = System.currentTimeMillis();
     IModuleResource[] resources = d.members();
     //System.err.println("top resources " + toList(resources));
     List<IModuleResource> all = new ArrayList<IModuleResource>();
     if (resources != null) {
       walk(resources, all);
     }
+    ServerModuleMetrics.recordWalk(System.currentTimeMillis() - start, all.size());
     resources = all.toArray(new IModuleResource[all.size()]);
    
     return resources;
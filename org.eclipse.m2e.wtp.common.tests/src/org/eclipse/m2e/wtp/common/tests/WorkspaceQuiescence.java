@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.m2e.wtp.common.tests;
+
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.IJobManager;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+
+/**
+ * Blocks until the workspace is quiet, i.e. no m2e job and no workspace build is scheduled, running or waiting to run,
+ * and no resource change was broadcast during a short quiet period. Configuration, filtering, manifest generation and
+ * overlay unpacking all run as m2e(-wtp) jobs or builds and/or produce resource deltas, so this returns as soon as they
+ * are done, instead of relying on arbitrary <code>Thread.sleep()</code> calls.
+ * <p>
+ * Other platform jobs are ignored, so unrelated long running or self rescheduling jobs can't hold tests back. Sleeping
+ * jobs are considered active, as they're bound to run once their scheduling delay elapses.
+ * </p>
+ * <p>
+ * Waiters are woken up by job manager and resource change events, rather than polling.
+ * </p>
+ */
+public class WorkspaceQuiescence {
+
+  /** Maximum time to wait for the workspace to settle, in milliseconds */
+  public static final long DEFAULT_TIMEOUT = 5 * 60 * 1000;
+
+  /** Time without any job or resource activity after which the workspace is considered quiet, in milliseconds */
+  public static final long DEFAULT_QUIET_PERIOD = 250;
+
+  /** Package prefixes of the jobs scheduled by m2e and m2e-wtp, including the overlay and JSF/JAX-RS/JPA bundles */
+  private static final String[] TRACKED_JOB_PACKAGES = {"org.eclipse.m2e."};
+
+  /** Families of the workspace build jobs, which run the m2e-wtp build participants */
+  private static final Object[] TRACKED_JOB_FAMILIES = {ResourcesPlugin.FAMILY_AUTO_BUILD,
+      ResourcesPlugin.FAMILY_MANUAL_BUILD};
+
+  private static final Object LOCK = new Object();
+
+  private static long lastActivity;
+
+  /** Whether any job or resource activity occurred since the current wait started */
+  private static boolean activitySeen;
+
+  private static final JobChangeAdapter JOB_LISTENER = new JobChangeAdapter() {
+    public void scheduled(IJobChangeEvent event) {
+      if(isTracked(event.getJob())) {
+        activity();
+      }
+    }
+
+    public void awake(IJobChangeEvent event) {
+      if(isTracked(event.getJob())) {
+        activity();
+      }
+    }
+
+    public void running(IJobChangeEvent event) {
+      if(isTracked(event.getJob())) {
+        activity();
+      }
+    }
+
+    public void done(IJobChangeEvent event) {
+      if(isTracked(event.getJob())) {
+        activity();
+      }
+    }
+  };
+
+  private static final IResourceChangeListener RESOURCE_LISTENER = new IResourceChangeListener() {
+    public void resourceChanged(IResourceChangeEvent event) {
+      activity();
+    }
+  };
+
+  private WorkspaceQuiescence() {
+  }
+
+  public static void waitForQuiescence() {
+    waitForQuiescence(DEFAULT_TIMEOUT, DEFAULT_QUIET_PERIOD);
+  }
+
+  /**
+   * Waits until no job is active and no resource change occurred for <code>quietPeriod</code> milliseconds. Returns
+   * immediately if no job is active and no activity is seen once the wait starts.
+   *
+   * @param timeout maximum time to wait, in milliseconds
+   * @param quietPeriod time without any activity after which the workspace is considered quiet, in milliseconds
+   * @throws AssertionError if the workspace is still busy after <code>timeout</code> milliseconds. The message lists
+   *           the jobs still running, waiting or sleeping.
+   */
+  public static void waitForQuiescence(long timeout, long quietPeriod) {
+    IJobManager jobManager = Job.getJobManager();
+    IWorkspace workspace = ResourcesPlugin.getWorkspace();
+    synchronized(LOCK) {
+      lastActivity = System.currentTimeMillis();
+      activitySeen = false;
+    }
+    jobManager.addJobChangeListener(JOB_LISTENER);
+    workspace.addResourceChangeListener(RESOURCE_LISTENER, IResourceChangeEvent.POST_CHANGE);
+    try {
+      long deadline = System.currentTimeMillis() + timeout;
+      synchronized(LOCK) {
+        while(true) {
+          long now = System.currentTimeMillis();
+          boolean idle = getActiveJobs(jobManager).isEmpty();
+          long quietFor = now - lastActivity;
+          // Nothing happened since the wait started : no need to sit through the quiet period
+          if(idle && (!activitySeen || quietFor >= quietPeriod)) {
+            return;
+          }
+          if(now >= deadline) {
+            fail("Workspace still busy after " + timeout + " ms. Active jobs : " + dumpActiveJobs(jobManager));
+          }
+          // Woken up early by any job or resource event; otherwise check again once the quiet period may have elapsed
+          long delay = idle ? quietPeriod - quietFor : quietPeriod;
+          try {
+            LOCK.wait(Math.max(1, Math.min(delay, deadline - now)));
+          } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail("Interrupted while waiting for the workspace to settle");
+          }
+        }
+      }
+    } finally {
+      workspace.removeResourceChangeListener(RESOURCE_LISTENER);
+      jobManager.removeJobChangeListener(JOB_LISTENER);
+    }
+  }
+
+  /**
+   * @return a description of all the m2e jobs and workspace builds currently running, waiting or sleeping.
+   */
+  public static String dumpActiveJobs() {
+    return dumpActiveJobs(Job.getJobManager());
+  }
+
+  private static String dumpActiveJobs(IJobManager jobManager) {
+    StringBuilder sb = new StringBuilder("[");
+    String sep = "";
+    for(Job job : getActiveJobs(jobManager)) {
+      sb.append(sep).append(job.getName()).append(" (").append(job.getClass().getName()).append(", ")
+          .append(getStateName(job.getState()));
+      if(job.getThread() != null) {
+        sb.append(", thread=").append(job.getThread().getName());
+      }
+      if(job.getRule() != null) {
+        sb.append(", rule=").append(job.getRule());
+      }
+      sb.append(")");
+      sep = ", ";
+    }
+    return sb.append(']').toString();
+  }
+
+  private static List<Job> getActiveJobs(IJobManager jobManager) {
+    List<Job> active = new ArrayList<Job>();
+    for(Job job : jobManager.find(null)) {
+      if(job.getState() != Job.NONE && isTracked(job)) {
+        active.add(job);
+      }
+    }
+    return active;
+  }
+
+  private static boolean isTracked(Job job) {
+    String className = job.getClass().getName();
+    for(String trackedPackage : TRACKED_JOB_PACKAGES) {
+      if(className.startsWith(trackedPackage)) {
+        return true;
+      }
+    }
+    for(Object family : TRACKED_JOB_FAMILIES) {
+      if(job.belongsTo(family)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String getStateName(int state) {
+    switch(state) {
+      case Job.RUNNING:
+        return "RUNNING";
+      case Job.WAITING:
+        return "WAITING";
+      case Job.SLEEPING:
+        return "SLEEPING";
+      default:
+        return "NONE";
+    }
+  }
+
+  private static void activity() {
+    synchronized(LOCK) {
+      lastActivity = System.currentTimeMillis();
+      activitySeen = true;
+      LOCK.notifyAll();
+    }
+  }
+}
@@ -9,16 +9,55 @@ package org.eclipse.m2e.wtp.common.tests;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 
 public class WorkspaceUtil {
 
+  /** Deletion of the existing workspace projects, in {@link #importProjectsInParallel(String, IWorkspace, Map, String...)} phase times */
+  public static final String DELETE_PHASE = "delete";
+
+  /** Copy of the fixture directories */
+  public static final String COPY_PHASE = "copy";
+
+  /** Creation and opening of the workspace projects */
+  public static final String CREATE_PHASE = "create";
+
+  /** Refresh of the workspace projects */
+  public static final String REFRESH_PHASE = "refresh";
+
+  /**
+   * System property enabling the materialization of fixtures as copy-on-write clones, with
+   * <code>-Dm2e.wtp.tests.cloneFixtures=true</code>.
+   */
+  public static final String CLONE_FIXTURES_PROPERTY = "m2e.wtp.tests.cloneFixtures";
+
+  /**
+   * System property overriding the <code>cp</code> command used to clone fixtures.
+   */
+  public static final String CLONE_COMMAND_PROPERTY = "m2e.wtp.tests.cloneCommand";
+
+  /** Whether each clone command supports the cloning options, probed once per command */
+  private static final Map<String, Boolean> CLONE_SUPPORT = new HashMap<String, Boolean>();
+
   public static IProject[] importProjects(String baseDir, IWorkspace workspace, String ... projectNames) throws Exception {
     if (projectNames == null || projectNames.length == 0) {
       return null;
@@ -31,6 +70,107 @@ public class WorkspaceUtil {
     return projects;
   }
 
+  /**
+   * Imports several projects at once : project directories are copied concurrently, then all the projects are
+   * created, opened and refreshed in a single workspace operation, so only one batch of resource deltas is broadcast.
+   * <p>
+   * Only covers tests importing plain projects through this class or {@link AbstractIntegrationTest}. Maven reactors
+   * such as MNGECLIPSE-688 or jpa/multi are imported by m2e's AbstractMavenProjectTestCase, which doesn't use it.
+   * </p>
+   */
+  public static IProject[] importProjectsInParallel(String baseDir, IWorkspace workspace, String ... projectNames) throws Exception {
+    return importProjectsInParallel(baseDir, workspace, null, projectNames);
+  }
+
+  /**
+   * Same as {@link #importProjectsInParallel(String, IWorkspace, String...)}, also reporting the time spent in each
+   * import phase.
+   * 
+   * @param phaseTimes if not <code>null</code>, receives the time, in milliseconds, spent in each phase (
+   *          {@link #DELETE_PHASE}, {@link #COPY_PHASE}, {@link #CREATE_PHASE} and {@link #REFRESH_PHASE}), in that
+   *          order.
+   */
+  public static IProject[] importProjectsInParallel(String baseDir, IWorkspace workspace, Map<String, Long> phaseTimes, final String ... projectNames) throws Exception {
+    if (projectNames == null || projectNames.length == 0) {
+      return null;
+    }
+    IProgressMonitor monitor = new NullProgressMonitor();
+    final IWorkspaceRoot root = workspace.getRoot();
+    final IProject[] projects = new IProject[projectNames.length];
+    for (int i = 0; i < projectNames.length; i++) {
+      projects[i] = root.getProject(projectNames[i]);
+    }
+
+    long start = System.currentTimeMillis();
+    workspace.run(new IWorkspaceRunnable() {
+      public void run(IProgressMonitor monitor) throws CoreException {
+        for (IProject project : projects) {
+          if (project.exists()) {
+            project.delete(true, monitor);
+          }
+        }
+      }
+    }, root, IWorkspace.AVOID_UPDATE, monitor);
+
+    long copyStart = System.currentTimeMillis();
+    File base = new File(baseDir).getCanonicalFile();
+    File workspaceDir = root.getLocation().toFile();
+    int threads = Math.min(projectNames.length, Runtime.getRuntime().availableProcessors());
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Void>> copies = new ArrayList<Future<Void>>(projectNames.length);
+      for (String projectName : projectNames) {
+        final File src = new File(base, projectName);
+        final File dst = new File(workspaceDir, projectName);
+        copies.add(executor.submit(new Callable<Void>() {
+          public Void call() throws IOException {
+            copyFiles(src, dst);
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> copy : copies) {
+        try {
+          copy.get();
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof Exception) {
+            throw (Exception) cause;
+          }
+          throw e;
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    long createStart = System.currentTimeMillis();
+    final long[] refreshStart = new long[1];
+    workspace.run(new IWorkspaceRunnable() {
+      public void run(IProgressMonitor monitor) throws CoreException {
+        for (IProject project : projects) {
+          project.create(monitor);
+          if (!project.isOpen()) {
+            project.open(monitor);
+          }
+        }
+        refreshStart[0] = System.currentTimeMillis();
+        for (IProject project : projects) {
+          project.refreshLocal(IResource.DEPTH_INFINITE, monitor);
+        }
+      }
+    }, root, IWorkspace.AVOID_UPDATE, monitor);
+    long end = System.currentTimeMillis();
+
+    if (phaseTimes != null) {
+      phaseTimes.put(DELETE_PHASE, copyStart - start);
+      phaseTimes.put(COPY_PHASE, createStart - copyStart);
+      phaseTimes.put(CREATE_PHASE, refreshStart[0] - createStart);
+      phaseTimes.put(REFRESH_PHASE, end - refreshStart[0]);
+    }
+    return projects;
+  }
+
   public static IProject importProject(String baseDir, IWorkspace workspace, String projectName) throws Exception {
     IProgressMonitor monitor = new NullProgressMonitor();
     IProject project = workspace.getRoot().getProject(projectName);
@@ -51,7 +191,85 @@ public class WorkspaceUtil {
   }
 
   private static void copyFiles(File srcDir, File destDir) throws IOException {
+    if (Boolean.getBoolean(CLONE_FIXTURES_PROPERTY) && cloneDirectory(srcDir, destDir)) {
+      return;
+    }
     FileUtils.copyDirectory(srcDir, destDir);
   }
 
+  /**
+   * Clones a fixture directory using <code>cp --reflink=auto</code> : on file systems supporting it (btrfs, xfs...),
+   * files are copy-on-write clones sharing the fixture blocks, so materializing a project costs next to no I/O. Other
+   * file systems get a regular copy. Hard links are not an option, as Eclipse and the configurators rewrite project
+   * files in place, which would modify the original fixtures.
+   * 
+   * @return false if the fixture couldn't be cloned, in which case it must be copied.
+   */
+  private static boolean cloneDirectory(File srcDir, File destDir) throws IOException {
+    String command = System.getProperty(CLONE_COMMAND_PROPERTY, "cp");
+    if (!isCloneSupported(command)) {
+      return false;
+    }
+    if (!destDir.isDirectory() && !destDir.mkdirs()) {
+      throw new IOException("Unable to create " + destDir);
+    }
+    String error = runClone(command, srcDir, destDir);
+    if (error == null) {
+      return true;
+    }
+    System.err.println("WARNING : unable to clone " + srcDir + ", copying it instead : " + error);
+    //Don't leave a partial clone behind
+    FileUtils.cleanDirectory(destDir);
+    return false;
+  }
+
+  /**
+   * Checks once whether a clone command can be run and accepts the cloning options (e.g. BSD and macOS cp don't
+   * support --reflink), so unsupported platforms don't spawn a failing process for every fixture.
+   */
+  private static boolean isCloneSupported(String command) throws IOException {
+    synchronized (CLONE_SUPPORT) {
+      Boolean supported = CLONE_SUPPORT.get(command);
+      if (supported == null) {
+        File probeDir = File.createTempFile("m2e-wtp-clone-probe", "");
+        try {
+          FileUtils.forceDelete(probeDir);
+          File src = new File(probeDir, "src");
+          File dest = new File(probeDir, "dest");
+          FileUtils.writeStringToFile(new File(src, "probe.txt"), "probe");
+          dest.mkdirs();
+          String error = runClone(command, src, dest);
+          supported = Boolean.valueOf(error == null && new File(dest, "probe.txt").isFile());
+          if (!supported.booleanValue()) {
+            System.err.println("WARNING : " + command + " can't clone fixtures, they will be copied instead : " + error);
+          }
+        } finally {
+          FileUtils.deleteQuietly(probeDir);
+        }
+        CLONE_SUPPORT.put(command, supported);
+      }
+      return supported.booleanValue();
+    }
+  }
+
+  /**
+   * @return <code>null</code> if the clone succeeded, the reason of the failure otherwise.
+   */
+  private static String runClone(String command, File srcDir, File destDir) throws IOException {
+    ProcessBuilder pb = new ProcessBuilder(command, "-R", "--reflink=auto", "--preserve=timestamps", 
+                                           srcDir.getAbsolutePath() + File.separator + ".", destDir.getAbsolutePath());
+    pb.redirectErrorStream(true);
+    try {
+      Process process = pb.start();
+      String output = IOUtils.toString(process.getInputStream());
+      int exitCode = process.waitFor();
+      return exitCode == 0 ? null : "exit code " + exitCode + " " + output;
+    } catch (IOException e) {
+      return e.getMessage();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while cloning " + srcDir);
+    }
+  }
+
 }
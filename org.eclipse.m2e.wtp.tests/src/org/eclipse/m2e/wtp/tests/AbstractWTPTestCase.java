@@ -43,6 +43,7 @@ import org.eclipse.m2e.jdt.internal.BuildPathManager;
 import org.eclipse.m2e.tests.common.AbstractMavenProjectTestCase;
 import org.eclipse.m2e.tests.common.ClasspathHelpers;
 import org.eclipse.m2e.wtp.MavenWtpPlugin;
+import org.eclipse.m2e.wtp.common.tests.WorkspaceQuiescence;
 import org.eclipse.m2e.wtp.preferences.ConfiguratorEnabler;
 import org.eclipse.m2e.wtp.preferences.IMavenWtpPreferences;
 import org.eclipse.wst.common.componentcore.ComponentCore;
@@ -207,23 +208,12 @@ public abstract class AbstractWTPTestCase extends AbstractMavenProjectTestCase {
   }
 
   /**
-   * Replace the project pom.xml with a new one, triggers new build
+   * Replace the project pom.xml with a new one, triggers new build and waits for the workspace to settle.
    * @param project
    * @param newPomName
    * @throws Exception
    */
-  protected void updateProject(IProject project, String newPomName) throws Exception {
-    updateProject(project, newPomName, -1);
-  }
-
-  /**
-   * Replace the project pom.xml with a new one, triggers new build, wait for waitTime milliseconds.
-   * @param project
-   * @param newPomName
-   * @param waitTime
-   * @throws Exception
-   */
-  protected void updateProject(IProject project, String newPomName, int waitTime) throws Exception {    
+  protected void updateProject(IProject project, String newPomName) throws Exception {    
     
     if (newPomName != null) {
       copyContent(project, newPomName, "pom.xml");
@@ -236,14 +226,13 @@ public abstract class AbstractWTPTestCase extends AbstractMavenProjectTestCase {
     
     waitForJobsToComplete();
     project.build(IncrementalProjectBuilder.FULL_BUILD, monitor);
-    if (waitTime > 0 ) {
-      Thread.sleep(waitTime);
-    }
+    //Wait for the jobs triggered by the build (filtering, manifest generation, overlay unpacking...) 
+    WorkspaceQuiescence.waitForQuiescence();
     waitForJobsToComplete();
   }
 
   protected void updateProject(IProject project) throws Exception {   
-    updateProject(project, null, -1);
+    updateProject(project, null);
   }
   
   protected void assertContains(String findMe, String holder) {
@@ -18,6 +18,7 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.m2e.core.project.ResolverConfiguration;
+import org.eclipse.m2e.wtp.common.tests.WorkspaceQuiescence;
 import org.eclipse.m2e.wtp.internal.Messages;
 import org.eclipse.wst.common.componentcore.ComponentCore;
 import org.eclipse.wst.common.componentcore.resources.IVirtualComponent;
@@ -42,9 +43,8 @@ public class ManifestConfiguratorTest extends AbstractWTPTestCase {
     //10 to 30% of my test runs, jar2 is not updated 'cause
     //The worker thread is gone like : 
     //Worker thread ended job: Updating Maven Dependencies(76), but still holds rule: ThreadJob(Updating Maven Dependencies(76),[R/,])
-    //Let's add an ugly delay, see if it improves the situation
-    long delay = 5000;
-    Thread.sleep(delay);
+    //So wait until no job is left running and the workspace stopped changing
+    WorkspaceQuiescence.waitForQuiescence();
     waitForJobsToComplete();
    
     String expectedManifest = "target/classes/META-INF/MANIFEST.MF";
@@ -13,6 +13,8 @@ import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.m2e.core.project.ResolverConfiguration;
+import org.eclipse.m2e.wtp.common.tests.OverlayUnpackTracker;
+import org.eclipse.m2e.wtp.common.tests.ServerModuleMetrics;
 import org.eclipse.m2e.wtp.common.tests.TestServerUtil;
 import org.eclipse.m2e.wtp.overlay.internal.modulecore.OverlaySelfComponent;
 import org.eclipse.m2e.wtp.overlay.internal.modulecore.OverlayVirtualArchiveComponent;
@@ -55,6 +57,47 @@ public class OverlayTest extends AbstractWTPTestCase {
       assertTrue("excluded/excluded.properties is missing from "+ resources, resources.contains("excluded/excluded.properties"));
   }
   
+  @Test
+  public void testUnchangedArchiveOverlayIsNotUnpackedAgain() throws Exception {
+      IProject war = importProject("projects/overlays/war-overlay5/pom.xml");
+      waitForJobsToComplete();
+      war.build(IncrementalProjectBuilder.INCREMENTAL_BUILD, monitor);
+      waitForJobsToComplete();
+      assertNoErrors(war);
+      
+      IServer server = TestServerUtil.createPreviewServer();
+      TestServerUtil.addProjectToServer(war, server);
+
+      ServerModuleMetrics.reset();
+      List<String> resources = TestServerUtil.toList(TestServerUtil.getServerModuleResources(war));
+      assertFalse("index.html should be missing from "+ resources,resources.contains("index.html"));
+      assertTrue("excluded/included.properties is missing from "+ resources, resources.contains("excluded/included.properties"));
+      
+      //Updating the project doesn't change the overlaid archive, it must not be unpacked again,
+      //neither by the update itself nor by the next members() call
+      OverlayUnpackTracker unpackTracker = new OverlayUnpackTracker();
+      unpackTracker.start();
+      List<String> newResources;
+      try {
+        updateProject(war);
+        assertNoErrors(war);
+        newResources = TestServerUtil.toList(TestServerUtil.getServerModuleResources(war, unpackTracker));
+      } finally {
+        unpackTracker.stop();
+      }
+      assertTrue("Unexpected overlay unpacking "+ unpackTracker.getUnpackTimes(), unpackTracker.getUnpackTimes().isEmpty());
+      //in/exclusions must still be honored
+      assertEquals(resources, newResources);
+      
+      //Budget : the single archive overlay is unpacked at most once, by the first members() call only
+      ServerModuleMetrics metrics = ServerModuleMetrics.snapshot();
+      assertTrue("Too many unpackings : " + metrics, metrics.unpackCount <= 1);
+      assertTrue("Too many calls unpacking overlays : " + metrics, metrics.callsWithUnpack <= 1);
+      assertTrue("Second call unpacked overlays : " + metrics, metrics.callsWithoutUnpack >= 1);
+      assertEquals(metrics.toString(), 2, metrics.walkCount);
+      assertEquals(metrics.toString(), resources.size() + newResources.size(), metrics.moduleResources);
+  }
+  
   @Test
   public void testProjectOverlay() throws Exception {
       IProject[] projects = importProjects("projects/overlays/",
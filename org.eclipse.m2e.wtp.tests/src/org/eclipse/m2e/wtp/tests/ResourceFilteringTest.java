@@ -79,6 +79,14 @@ public class ResourceFilteringTest extends AbstractWTPTestCase {
     
     props = getFileAsProperties(filteredFolder, "index.properties");
     assertEquals("${custom.version} from webfilter.properties was not updated "+ getAsString(filterFile),"1.0",props.get("app.version"));
+
+    //Every output depending on the modified filter must be updated
+    xml = getAsString(webXml);
+    assertTrue("${welcome.page} from webfilter.properties was not updated : "+xml, xml.contains("<welcome-file>default.jsp</welcome-file>"));
+    //Outputs not depending on the filter must still be correctly interpolated
+    index = getAsString(indexHtml);
+    assertTrue("${phrase} property from pom is no longer interpolated", index.contains("<title>m2e rocks!</title>"));
+    assertTrue("${project.artifactId} from pom is no longer interpolated", index.contains("<body>Welcome @ webfiltering</body>"));
   }
 
   @Test
@@ -146,7 +146,7 @@ public class WTPProjectConfiguratorTest extends AbstractWTPTestCase {
     assertEquals(2, underlyingResources.length);
     assertEquals(ear.getFolder("/src/main/application"), underlyingResources[1]);
 
-    updateProject(ear, "change-earcontent.xml", 2000);
+    updateProject(ear, "change-earcontent.xml");
 
     underlyingResources = getUnderlyingResources(ear);
     assertEquals(2, underlyingResources.length);
@@ -860,7 +860,7 @@ public class WTPProjectConfiguratorTest extends AbstractWTPTestCase {
     assertEquals(2, edit.getApplication().getSecurityRoles().size());
 
     /* TODO investigate why the rest of the test fails randomly
-    updateProject(ear, "pom.step2.xml", 2000);     
+    updateProject(ear, "pom.step2.xml");     
     
     app = (Application)ModelProviderManager.getModelProvider(ear).getModelObject();
     assertEquals(dumpModules(app.getModules()),2,app.getModules().size());
@@ -1319,6 +1319,57 @@ public class WTPProjectConfiguratorTest extends AbstractWTPTestCase {
     assertEquals(ejbRef.getArchiveName(), edit.getModuleURI(ejbRef.getReferencedComponent()));
   }
 
+  @Test
+  public void testUriInEarModulesAfterPomChange() throws Exception {
+
+    deleteProject("pom");
+    deleteProject("ear");
+    deleteProject("ejb");
+    deleteProject("war");
+    deleteProject("core");
+
+    IProject[] projects = importProjects("projects/bundleFileNames/", //
+        new String[] {"javaEE/pom.xml", "javaEE/ear/pom.xml", "javaEE/core/pom.xml", "javaEE/ejb/pom.xml",
+            "javaEE/war/pom.xml"}, new ResolverConfiguration());
+
+    waitForJobsToComplete();
+
+    assertEquals(5, projects.length);
+    IProject ear = projects[1];
+    IProject war = projects[4];
+    assertNoErrors(ear);
+
+    IVirtualComponent comp = ComponentCore.createComponent(ear);
+    assertEquals("specialejb.jar", comp.getReference("ejb").getArchiveName());
+
+    //Module URIs and context root changed in the EAR configuration : references and application.xml must follow
+    updateProject(ear, "pom2.xml");
+    assertNoErrors(ear);
+
+    comp = ComponentCore.createComponent(ear);
+    IVirtualReference warRef = comp.getReference("war");
+    assertNotNull(warRef);
+    assertEquals("war-0.0.1-SNAPSHOT.war", warRef.getArchiveName());
+    IVirtualReference coreRef = comp.getReference("core");
+    assertNotNull(coreRef);
+    assertEquals("corerenamed.zip", coreRef.getArchiveName());
+    assertEquals("/renamed", coreRef.getRuntimePath().toPortableString());
+    IVirtualReference ejbRef = comp.getReference("ejb");
+    assertNotNull(ejbRef);
+    assertEquals("renamedejb.jar", ejbRef.getArchiveName());
+
+    EARArtifactEdit edit = EARArtifactEdit.getEARArtifactEditForRead(ear);
+    assertNotNull(edit);
+    try {
+      assertEquals(3, edit.getApplication().getModules().size());
+      assertEquals("/renamed", edit.getWebContextRoot(war));
+      assertEquals("/renamed/corerenamed.zip", edit.getModuleURI(coreRef.getReferencedComponent()));
+      assertEquals(ejbRef.getArchiveName(), edit.getModuleURI(ejbRef.getReferencedComponent()));
+    } finally {
+      edit.dispose();
+    }
+  }
+
   @Test
   public void testMNGECLIPSE2279_finalNameAsContextRoot() throws Exception {
     IProject project = importProject("projects/MNGECLIPSE-2279/pom.xml", new ResolverConfiguration());
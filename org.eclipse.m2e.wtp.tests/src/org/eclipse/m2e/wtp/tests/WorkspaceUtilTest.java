@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.m2e.wtp.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.m2e.wtp.common.tests.AbstractIntegrationTest;
+import org.eclipse.m2e.wtp.common.tests.WorkspaceUtil;
+import org.junit.Test;
+
+public class WorkspaceUtilTest extends AbstractIntegrationTest {
+
+  private static final String MULTI_MODULE = "projects/manifests/MECLIPSEWTP-66";
+
+  private static final String[] MODULES = {"jar", "jar2", "jar3", "jar4", "war"};
+
+  public WorkspaceUtilTest() {
+    super(MULTI_MODULE);
+  }
+
+  @Test
+  public void testParallelImportMatchesSequentialImport() throws Exception {
+    IProject[] projects = importProjects(MODULES);
+    List<Set<String>> expected = new ArrayList<Set<String>>();
+    for (IProject project : projects) {
+      expected.add(listFiles(project));
+    }
+    deleteProjects();
+
+    Map<String, Long> phaseTimes = new LinkedHashMap<String, Long>();
+    IProject[] parallelProjects = WorkspaceUtil.importProjectsInParallel(projectsDir, workspace, phaseTimes, MODULES);
+
+    assertEquals(MODULES.length, parallelProjects.length);
+    for (int i = 0; i < MODULES.length; i++) {
+      IProject project = parallelProjects[i];
+      assertEquals(MODULES[i], project.getName());
+      assertTrue(project.getName() + " is not open", project.isOpen());
+      assertEquals(expected.get(i), listFiles(project));
+    }
+    assertEquals(Arrays.asList(WorkspaceUtil.DELETE_PHASE, WorkspaceUtil.COPY_PHASE, WorkspaceUtil.CREATE_PHASE,
+        WorkspaceUtil.REFRESH_PHASE), new ArrayList<String>(phaseTimes.keySet()));
+    for (Long time : phaseTimes.values()) {
+      assertTrue("Negative phase time in " + phaseTimes, time >= 0);
+    }
+  }
+
+  @Test
+  public void testClonedFixturesMatchCopiedFixtures() throws Exception {
+    Set<String> expected = listFiles(importProject("war"));
+    deleteProjects();
+
+    String oldClone = System.setProperty(WorkspaceUtil.CLONE_FIXTURES_PROPERTY, "true");
+    try {
+      assertEquals(expected, listFiles(importProject("war")));
+    } finally {
+      restoreProperty(WorkspaceUtil.CLONE_FIXTURES_PROPERTY, oldClone);
+    }
+  }
+
+  @Test
+  public void testFixturesAreCopiedWhenCloningFails() throws Exception {
+    Set<String> expected = listFiles(importProject("war"));
+    deleteProjects();
+
+    String oldClone = System.setProperty(WorkspaceUtil.CLONE_FIXTURES_PROPERTY, "true");
+    //Starts but fails, like cp rejecting --reflink on BSD/macOS : the fixture must be copied instead
+    String oldCommand = System.setProperty(WorkspaceUtil.CLONE_COMMAND_PROPERTY, "false");
+    try {
+      assertEquals(expected, listFiles(importProject("war")));
+      deleteProjects();
+
+      //Can't be started at all, every import must fall back to copying
+      System.setProperty(WorkspaceUtil.CLONE_COMMAND_PROPERTY, "m2e-wtp-missing-cp-command");
+      assertEquals(expected, listFiles(importProject("war")));
+      deleteProjects();
+      assertEquals(expected, listFiles(importProject("war")));
+    } finally {
+      restoreProperty(WorkspaceUtil.CLONE_FIXTURES_PROPERTY, oldClone);
+      restoreProperty(WorkspaceUtil.CLONE_COMMAND_PROPERTY, oldCommand);
+    }
+  }
+
+  private static void restoreProperty(String key, String value) {
+    if (value == null) {
+      System.clearProperty(key);
+    } else {
+      System.setProperty(key, value);
+    }
+  }
+
+  private static Set<String> listFiles(IProject project) {
+    assertNotNull(project.getLocation());
+    Set<String> files = new TreeSet<String>();
+    listFiles(project.getLocation().toFile(), "", files);
+    return files;
+  }
+
+  private static void listFiles(File dir, String path, Set<String> files) {
+    File[] children = dir.listFiles();
+    if (children == null) {
+      return;
+    }
+    for (File child : children) {
+      String childPath = path + child.getName();
+      if (child.isDirectory()) {
+        listFiles(child, childPath + "/", files);
+      } else {
+        files.add(childPath + ":" + child.length());
+      }
+    }
+  }
+}
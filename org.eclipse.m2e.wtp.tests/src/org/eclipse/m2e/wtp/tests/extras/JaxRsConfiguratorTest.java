@@ -55,7 +55,7 @@ public class JaxRsConfiguratorTest extends AbstractWTPTestCase {
 		assertHasJaxRsConfigurationError(jaxRsProject, "JAX-RS (REST Web Services) 1.1 requires Java 1.5 or newer.");
 		
 		//Check markers are removed upon configuration update
-		updateProject(jaxRsProject, "good.pom.xml", 1000);
+		updateProject(jaxRsProject, "good.pom.xml");
 		assertNoErrors(jaxRsProject);
 		assertIsJaxRsProject(jaxRsProject, MavenJaxRsConstants.JAX_RS_FACET_1_1);
 	}
@@ -36,4 +36,41 @@ public class FacetDetectorManagerTest extends AbstractWTPTestCase {
 				                           "foo.bar", 
 				                           monitor));
 	}
+
+	public void testSlowDetectorPriority() throws Exception {
+		IProject[] projects = importProjects("projects/407315/", new String[]{"detect-my-name/pom.xml", "maven/pom.xml"}, new ResolverConfiguration());
+		
+		FacetDetectorManager facetDetectorManager = FacetDetectorManager.getInstance();
+		IMavenProjectRegistry registry = MavenPlugin.getMavenProjectRegistry();
+		//SlowFacetDetector answers last, but has the highest priority, so it must win, 
+		//even if detectors were evaluated concurrently 
+		assertEquals(WebFacetUtils.WEB_24, facetDetectorManager.findFacetVersion(registry.getProject(projects[0]), 
+				                           "foo.slow", 
+				                           monitor));
+		//SlowFacetDetector doesn't detect anything, the lower priority TestFacetDetector1 must be used
+		assertEquals(WebFacetUtils.WEB_30, facetDetectorManager.findFacetVersion(registry.getProject(projects[1]), 
+				                           "foo.slow", 
+				                           monitor));
+	}
+
+	public void testFacetDetectionFollowsPomChanges() throws Exception {
+		IProject project = importProject("projects/407315/property-driven/pom.xml");
+		waitForJobsToComplete();
+		
+		FacetDetectorManager facetDetectorManager = FacetDetectorManager.getInstance();
+		IMavenProjectRegistry registry = MavenPlugin.getMavenProjectRegistry();
+		
+		assertEquals(WebFacetUtils.WEB_30, facetDetectorManager.findFacetVersion(registry.getProject(project), 
+				                           "foo.baz", 
+				                           monitor));
+		//Nothing changed, the same version must be detected
+		assertEquals(WebFacetUtils.WEB_30, facetDetectorManager.findFacetVersion(registry.getProject(project), 
+				                           "foo.baz", 
+				                           monitor));
+		//Changing the pom.xml must not return stale results
+		updateProject(project, "pom2.xml");
+		assertEquals(WebFacetUtils.WEB_25, facetDetectorManager.findFacetVersion(registry.getProject(project), 
+				                           "foo.baz", 
+				                           monitor));
+	}
 }
@@ -0,0 +1,47 @@
+/*************************************************************************************
+ * Copyright (c) 2014 Red Hat, Inc. and others.
+ * All rights reserved. This program and the accompanying materials 
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *     Red Hat, Inc. - initial API and implementation
+ ************************************************************************************/
+package org.eclipse.m2e.wtp.tests.facets;
+
+import java.util.Map;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jst.j2ee.web.project.facet.WebFacetUtils;
+import org.eclipse.m2e.core.project.IMavenProjectFacade;
+import org.eclipse.m2e.wtp.facets.AbstractFacetDetector;
+import org.eclipse.wst.common.project.facet.core.IProjectFacetVersion;
+
+/**
+ * High priority detector simulating I/O latency, which must still win over faster, lower priority detectors. 
+ */
+public class SlowFacetDetector extends AbstractFacetDetector {
+
+	static final long LATENCY = 100;
+
+	@Override
+	public IProjectFacetVersion findFacetVersion(IMavenProjectFacade mavenProjectFacade, Map<?, ?> context, IProgressMonitor monitor) {
+		try {
+			Thread.sleep(LATENCY);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+		IProject project = mavenProjectFacade.getProject();
+		if (project == null) {
+			return null;
+		}
+		if ("detect-my-name".equals(project.getName())) {
+			return WebFacetUtils.WEB_24;
+		}
+		return null;
+	}
+
+}
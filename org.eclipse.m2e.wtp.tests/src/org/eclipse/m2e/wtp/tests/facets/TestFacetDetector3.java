@@ -0,0 +1,43 @@
+/*************************************************************************************
+ * Copyright (c) 2014 Red Hat, Inc. and others.
+ * All rights reserved. This program and the accompanying materials 
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *     Red Hat, Inc. - initial API and implementation
+ ************************************************************************************/
+package org.eclipse.m2e.wtp.tests.facets;
+
+import java.util.Map;
+
+import org.apache.maven.project.MavenProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jst.j2ee.web.project.facet.WebFacetUtils;
+import org.eclipse.m2e.core.project.IMavenProjectFacade;
+import org.eclipse.m2e.wtp.facets.AbstractFacetDetector;
+import org.eclipse.wst.common.project.facet.core.IProjectFacetVersion;
+
+/**
+ * Detects the version declared in the web.facet.version property of the pom.xml 
+ */
+public class TestFacetDetector3 extends AbstractFacetDetector {
+
+	@Override
+	public IProjectFacetVersion findFacetVersion(
+			IMavenProjectFacade mavenProjectFacade, Map<?, ?> context,
+			IProgressMonitor monitor) throws CoreException {
+		MavenProject mavenProject = mavenProjectFacade.getMavenProject(monitor);
+		if (mavenProject == null) {
+			return null;
+		}
+		String version = mavenProject.getProperties().getProperty("web.facet.version");
+		if (version == null) {
+			return null;
+		}
+		return WebFacetUtils.WEB_FACET.getVersion(version);
+	}
+
+}
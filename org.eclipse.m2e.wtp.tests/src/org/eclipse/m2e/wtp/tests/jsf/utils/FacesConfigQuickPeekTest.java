@@ -52,6 +52,21 @@ public class FacesConfigQuickPeekTest extends TestCase {
 	
 	}
 
+	@Test
+	public void testGetVersionOfLargeFacesConfig() {
+		StringBuilder beans = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			beans.append("<managed-bean><managed-bean-name>bean").append(i).append("</managed-bean-name>")
+				 .append("<managed-bean-class>org.example.Bean").append(i).append("</managed-bean-class>")
+				 .append("<managed-bean-scope>request</managed-bean-scope></managed-bean>");
+		}
+		assertVersion("2.0", getInputStream("<faces-config version=\"2.0\">" + beans + "</faces-config>"));
+		assertVersion("1.1", getInputStream("<!DOCTYPE faces-config PUBLIC \"-//Sun Microsystems, Inc.//DTD JavaServer Faces Config 1.1//EN\" \"http://java.sun.com/dtd/web-facesconfig_1_1.dtd\"><faces-config>" + beans + "</faces-config>"));
+		assertVersion("2.0", getInputStream("<faces-config xmlns=\"http://java.sun.com/xml/ns/javaee\""
+			              +  " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+			              +  " xsi:schemaLocation=\"http://java.sun.com/xml/ns/javaee http://java.sun.com/xml/ns/javaee/web-facesconfig_2_0.xsd\" >" + beans + "</faces-config>"));
+	}
+
 	private InputStream getInputStream(String s) {
 		try {
 			return (s == null)? null :new ByteArrayInputStream(s.getBytes("UTF-8"));
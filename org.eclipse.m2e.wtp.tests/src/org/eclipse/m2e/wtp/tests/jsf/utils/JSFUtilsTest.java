@@ -52,5 +52,29 @@ public class JSFUtilsTest extends TestCase {
 		is = new ByteArrayInputStream(webXmlNoFaces.getBytes());
 		assertFalse(JSFUtils.hasFacesServlet(is));
 	}
+
+	@Test
+	public void testHasFacesServletAmongManyServlets() {
+		StringBuilder servlets = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			servlets.append("  <servlet>\r\n")
+					.append("  <servlet-name>Servlet").append(i).append("</servlet-name>\r\n")
+					.append("  <servlet-class>org.example.Servlet").append(i).append("</servlet-class>\r\n")
+					.append("  </servlet>\r\n");
+		}
+		String header = webXmlNoFaces.substring(0, webXmlNoFaces.indexOf("  <servlet>"));
+		String facesServlet = webXml.substring(webXml.indexOf("  <servlet>"), webXml.indexOf("</web-app>"));
+
+		//FacesServlet declared first : the rest of the file is irrelevant
+		InputStream is = new ByteArrayInputStream((header + facesServlet + servlets + "</web-app>").getBytes());
+		assertTrue(JSFUtils.hasFacesServlet(is));
+
+		//FacesServlet declared last
+		is = new ByteArrayInputStream((header + servlets + facesServlet + "</web-app>").getBytes());
+		assertTrue(JSFUtils.hasFacesServlet(is));
+
+		is = new ByteArrayInputStream((header + servlets + "</web-app>").getBytes());
+		assertFalse(JSFUtils.hasFacesServlet(is));
+	}
 	
 }